@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Java engine for the live visualizer. Runs as its own JVM and attaches to the
+// backend over a Unix socket. Vertex input and output live in a shared mapping
+// owned by the backend: [0, max*12) is the xyz input, [max*12, 2*max*12) the output.
+// Per frame the socket only carries (count: i32, angle: f32) in and
+// math_elapsed_us: f32 back, so the steady state allocates nothing on either side.
+public class JavaEngine {
+    static final ValueLayout.OfFloat F32 = ValueLayout.JAVA_FLOAT;
+    static final int STATS_INTERVAL = 300;
+
+    static void transform(MemorySegment vertices, MemorySegment output, int count, float angle) {
+        float cosA = (float) Math.cos(angle);
+        float sinA = (float) Math.sin(angle);
+
+        for (int i = 0; i < count; i++) {
+            long base = i * 12L;
+            float px = vertices.get(F32, base);
+            float py = vertices.get(F32, base + 4);
+            float pz = vertices.get(F32, base + 8);
+
+            // Rotate around Y
+            float x1 = px * cosA + pz * sinA;
+            float z1 = -px * sinA + pz * cosA;
+
+            // Rotate around X
+            float y2 = py * cosA - z1 * sinA;
+            float z2 = py * sinA + z1 * cosA;
+
+            output.set(F32, base, x1);
+            output.set(F32, base + 4, y2);
+            output.set(F32, base + 8, z2);
+        }
+    }
+
+    static SocketChannel connect(Path socket) throws InterruptedException {
+        while (true) {
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+                channel.connect(UnixDomainSocketAddress.of(socket));
+                return channel;
+            } catch (IOException e) {
+                if (channel != null) {
+                    try { channel.close(); } catch (IOException ignored) { }
+                }
+                Thread.sleep(500);
+            }
+        }
+    }
+
+    static long gcCount(List<GarbageCollectorMXBean> gcs) {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : gcs) total += gc.getCollectionCount();
+        return total;
+    }
+
+    static long gcTimeMs(List<GarbageCollectorMXBean> gcs) {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : gcs) total += gc.getCollectionTime();
+        return total;
+    }
+
+    static void serve(SocketChannel channel, Path shm, List<GarbageCollectorMXBean> gcs) throws IOException {
+        ByteBuffer request = ByteBuffer.allocateDirect(8).order(ByteOrder.nativeOrder());
+        ByteBuffer reply = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder());
+
+        try (Arena arena = Arena.ofConfined();
+             FileChannel file = FileChannel.open(shm, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long half = file.size() / 2;
+            MemorySegment mapping = file.map(FileChannel.MapMode.READ_WRITE, 0, half * 2, arena);
+            MemorySegment vertices = mapping.asSlice(0, half);
+            MemorySegment output = mapping.asSlice(half, half);
+            int maxVertices = (int) (half / 12);
+
+            System.out.printf("JAVA ENGINE ATTACHED max_vertices=%d\n", maxVertices);
+
+            long frames = 0;
+            float minUs = Float.MAX_VALUE, maxUs = 0.0f;
+            double sumUs = 0.0;
+            long gcCountBase = gcCount(gcs);
+            long gcTimeBase = gcTimeMs(gcs);
+
+            while (true) {
+                request.clear();
+                while (request.hasRemaining()) {
+                    if (channel.read(request) < 0) return;
+                }
+                int count = Math.min(Math.max(request.getInt(0), 0), maxVertices);
+                float angle = request.getFloat(4);
+
+                long start = System.nanoTime();
+                transform(vertices, output, count, angle);
+                // Whole microseconds, like Rust's as_micros() on the native engines
+                float mathElapsedUs = (float) ((System.nanoTime() - start) / 1_000);
+
+                reply.clear();
+                reply.putFloat(0, mathElapsedUs);
+                while (reply.hasRemaining()) channel.write(reply);
+
+                frames++;
+                minUs = Math.min(minUs, mathElapsedUs);
+                maxUs = Math.max(maxUs, mathElapsedUs);
+                sumUs += mathElapsedUs;
+
+                if (frames % STATS_INTERVAL == 0) {
+                    long gcCountNow = gcCount(gcs);
+                    long gcTimeNow = gcTimeMs(gcs);
+                    System.out.printf("[JAVA ENGINE] frames=%d vertices=%d math_us min=%.0f mean=%.1f max=%.0f gc_count=%d gc_ms=%d\n",
+                            frames, count, minUs, sumUs / STATS_INTERVAL, maxUs,
+                            gcCountNow - gcCountBase, gcTimeNow - gcTimeBase);
+                    minUs = Float.MAX_VALUE;
+                    maxUs = 0.0f;
+                    sumUs = 0.0;
+                    gcCountBase = gcCountNow;
+                    gcTimeBase = gcTimeNow;
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Path socket = Path.of(args.length > 0 ? args[0] : "/tmp/live3d-java.sock");
+        Path shm = Path.of(args.length > 1 ? args[1] : "/dev/shm/live3d-java.bin");
+        List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
+
+        System.out.println("JAVA ENGINE WAITING FOR BACKEND on " + socket);
+        while (true) {
+            try (SocketChannel channel = connect(socket)) {
+                serve(channel, shm, gcs);
+            } catch (IOException e) {
+                System.out.println("JAVA ENGINE DETACHED: " + e.getMessage());
+            }
+            Thread.sleep(500);
+        }
+    }
+}
@@ -3,8 +3,12 @@ use std::sync::atomic::{AtomicU8, AtomicU32, Ordering};
 use tokio::time::{Instant, Duration};
 use warp::Filter;
 use futures_util::{StreamExt, SinkExt};
-use tokio::sync::{broadcast, RwLock};
+use tokio::sync::{broadcast, mpsc, RwLock};
+use tokio::net::{UnixListener, UnixStream};
+use tokio::io::{AsyncReadExt, AsyncWriteExt};
 use serde::Deserialize;
+use memmap2::MmapMut;
+use std::fs::OpenOptions;
 
 // FFI Declarations
 extern "C" {
@@ -12,6 +16,68 @@ extern "C" {
     fn transform_cpp(vertices: *const f32, output: *mut f32, count: i32, angle: f32);
 }
 
+// Java runs as a separate JVM (src/engines/JavaEngine.java) attached over this socket
+const JAVA_ENGINE_SOCKET: &str = "/tmp/live3d-java.sock";
+const JAVA_ENGINE_SHM: &str = "/dev/shm/live3d-java.bin";
+// A stalled JVM is detached after this long so it cannot freeze the render loop for every engine
+const JAVA_ENGINE_TIMEOUT: Duration = Duration::from_millis(500);
+
+// Input and output vertices live in a shared mapping: [0, max*12) input, [max*12, 2*max*12) output.
+// The socket only carries the per-frame doorbell (count, angle) and the reply (math_elapsed_us),
+// so neither process allocates or copies frame data through the kernel.
+struct JavaEngine {
+    shm: MmapMut,
+    max_vertices: usize,
+    staged_len: usize,
+    stream: Option<UnixStream>,
+    incoming: mpsc::Receiver<UnixStream>,
+}
+
+impl JavaEngine {
+    fn open(max_vertices: usize, incoming: mpsc::Receiver<UnixStream>) -> std::io::Result<Self> {
+        let file = OpenOptions::new().read(true).write(true).create(true).truncate(true).open(JAVA_ENGINE_SHM)?;
+        file.set_len((max_vertices * 3 * 4 * 2) as u64)?;
+        let shm = unsafe { MmapMut::map_mut(&file)? };
+        Ok(JavaEngine { shm, max_vertices, staged_len: 0, stream: None, incoming })
+    }
+
+    fn output(&self, count: usize) -> &[u8] {
+        let offset = self.max_vertices * 3 * 4;
+        &self.shm[offset..offset + count.min(self.max_vertices) * 3 * 4]
+    }
+
+    async fn transform(&mut self, vertices: &[f32], count: usize, angle: f32) -> Option<f32> {
+        if let Ok(stream) = self.incoming.try_recv() {
+            self.stream = Some(stream);
+        }
+        let stream = self.stream.as_mut()?;
+
+        // generate_torus is deterministic, so the input only changes when its length does
+        let len = vertices.len().min(self.max_vertices * 3);
+        if len != self.staged_len {
+            unsafe { std::ptr::copy_nonoverlapping(vertices.as_ptr(), self.shm.as_mut_ptr() as *mut f32, len); }
+            self.staged_len = len;
+        }
+
+        let mut request = [0u8; 8];
+        request[..4].copy_from_slice(&(count.min(len / 3) as i32).to_ne_bytes());
+        request[4..].copy_from_slice(&angle.to_ne_bytes());
+        let mut reply = [0u8; 4];
+        let exchange = async {
+            stream.write_all(&request).await?;
+            stream.read_exact(&mut reply).await?;
+            Ok::<(), std::io::Error>(())
+        };
+        let ok = matches!(tokio::time::timeout(JAVA_ENGINE_TIMEOUT, exchange).await, Ok(Ok(())));
+        if !ok {
+            println!("JAVA ENGINE DETACHED");
+            self.stream = None;
+            return None;
+        }
+        Some(f32::from_ne_bytes(reply))
+    }
+}
+
 #[derive(Deserialize)]
 struct ControlMsg {
     r#type: String,
@@ -49,6 +115,27 @@ async fn main() {
     let vertices_task = vertices.clone();
     let fps_task = target_fps.clone();
     let count_task = vertex_count.clone();
+
+    // The shared mapping must be fully sized before the socket accepts, or an early JVM could map a short file
+    let (java_conn_tx, java_conn_rx) = mpsc::channel::<UnixStream>(1);
+    let mut java = match JavaEngine::open(max_vertices, java_conn_rx) {
+        Ok(engine) => Some(engine),
+        Err(e) => { eprintln!("Java engine shared memory unavailable: {}", e); None }
+    };
+    if java.is_some() {
+        let _ = std::fs::remove_file(JAVA_ENGINE_SOCKET);
+        match UnixListener::bind(JAVA_ENGINE_SOCKET) {
+            Ok(listener) => {
+                tokio::spawn(async move {
+                    while let Ok((stream, _)) = listener.accept().await {
+                        println!("JAVA ENGINE ATTACHED");
+                        let _ = java_conn_tx.send(stream).await;
+                    }
+                });
+            }
+            Err(e) => eprintln!("Java engine socket unavailable: {}", e),
+        }
+    }
     
     tokio::spawn(async move {
         let mut angle: f32 = 0.0;
@@ -62,6 +149,7 @@ async fn main() {
             
             let v_lock = vertices_task.read().await;
             let math_start = Instant::now();
+            let mut reported_us = None;
             
             match current_engine {
                 0 => { // Rust
@@ -78,18 +166,32 @@ async fn main() {
                 }
                 1 => unsafe { transform_c(v_lock.as_ptr(), output_buffer.as_mut_ptr(), current_count as i32, angle); }
                 2 => unsafe { transform_cpp(v_lock.as_ptr(), output_buffer.as_mut_ptr(), current_count as i32, angle); }
+                3 => {
+                    // The JVM times its own kernel so the socket round-trip is not counted
+                    reported_us = match java.as_mut() {
+                        Some(engine) => engine.transform(&v_lock, current_count, angle).await,
+                        None => None,
+                    };
+                    if reported_us.is_none() {
+                        // No Java engine attached yet: skip the frame rather than stream stale output
+                        drop(v_lock);
+                        tokio::time::sleep(Duration::from_millis(100)).await;
+                        continue;
+                    }
+                }
                 _ => {}
             }
-            let math_elapsed_us = math_start.elapsed().as_micros() as f32;
+            let math_elapsed_us = reported_us.unwrap_or_else(|| math_start.elapsed().as_micros() as f32);
             drop(v_lock);
 
             if tx_task.receiver_count() > 0 {
                 let mut packet = Vec::with_capacity(4 + current_count * 3 * 4);
                 packet.extend_from_slice(&math_elapsed_us.to_ne_bytes());
-                unsafe {
-                    let vertex_bytes = std::slice::from_raw_parts(output_buffer.as_ptr() as *const u8, current_count * 3 * 4);
-                    packet.extend_from_slice(vertex_bytes);
-                }
+                let vertex_bytes = match (current_engine, java.as_ref()) {
+                    (3, Some(engine)) => engine.output(current_count),
+                    _ => unsafe { std::slice::from_raw_parts(output_buffer.as_ptr() as *const u8, current_count * 3 * 4) },
+                };
+                packet.extend_from_slice(vertex_bytes);
                 // If channel is full, this will fail - providing natural backpressure
                 let _ = tx_task.send(packet);
             }
@@ -3,6 +3,17 @@ set -euo pipefail
 
 ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 
+# Every run is appended to ../output/results.jsonl; compare with ../results.py compare
+RESULTS_TAG="${RESULTS_TAG:-$(git -C "$ROOT_DIR" rev-parse --short HEAD 2>/dev/null || echo local)-$(date +%Y%m%dT%H%M%S)}"
+BENCH_PARAMS="total_bytes=10GiB buffer=64KiB"
+
+record_result() {
+  local name="$1" jvm="$2"
+  shift 2
+  python3 "$ROOT_DIR/../results.py" record --bench "$(basename "$ROOT_DIR")" --impl "$name" \
+    --params "$BENCH_PARAMS" --tag "$RESULTS_TAG" --jvm "$jvm" "$@" || true
+}
+
 build() {
   local name="$1"
   local dockerfile="$2"
@@ -22,6 +33,11 @@ run_one() {
   local times=()
   local throughputs=()
   
+  local jvm=""
+  if [[ "$name" == *java* ]]; then
+    jvm="$(docker run --rm "$name" java -version 2>&1 | head -n1 || true)"
+  fi
+  
   for ((i=0; i<runs; i++)); do
     echo "Running $name (run $((i+1))/$runs)..."
     out=$(python3 - <<EOF
@@ -30,7 +46,7 @@ try:
     res = subprocess.run(['docker', 'run', '--rm', '$name'], capture_output=True, timeout=180, text=True)
     print(res.stdout)
 except subprocess.TimeoutExpired:
-    print('elapsed_ms=180000.000 throughput_gb_sec=0.000')
+    print('elapsed_ms=180000.000 throughput_gb_sec=0.000 error=timeout')
 except Exception as e:
     print(f'elapsed_ms=0.000 throughput_gb_sec=0.000 error={e}')
 EOF
@@ -39,6 +55,10 @@ EOF
     throughput="$(echo "$out" | awk -F'[= ]' '{for (i=1;i<=NF;i++) if ($i=="throughput_gb_sec") {print $(i+1); exit}}')"
     times+=("$elapsed")
     throughputs+=("$throughput")
+    # Timeout/error placeholders are not measurements and must not enter the history
+    if [[ "$out" != *"error="* ]]; then
+      record_result "$name" "$jvm" elapsed_ms="$elapsed" throughput_gb_sec="$throughput"
+    fi
   done
 
   local min mean t_mean
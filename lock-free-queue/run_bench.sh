@@ -3,6 +3,17 @@ set -eo pipefail
 
 ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 
+# Every run is appended to ../output/results.jsonl; compare with ../results.py compare
+RESULTS_TAG="${RESULTS_TAG:-$(git -C "$ROOT_DIR" rev-parse --short HEAD 2>/dev/null || echo local)-$(date +%Y%m%dT%H%M%S)}"
+BENCH_PARAMS="producers=4 consumers=4 ops_per_producer=1000000 queue_size=65536"
+
+record_result() {
+  local name="$1" jvm="$2"
+  shift 2
+  python3 "$ROOT_DIR/../results.py" record --bench "$(basename "$ROOT_DIR")" --impl "$name" \
+    --params "$BENCH_PARAMS" --tag "$RESULTS_TAG" --jvm "$jvm" "$@" || true
+}
+
 build() {
   local name="$1"
   local dockerfile="$2"
@@ -27,6 +38,11 @@ run_one() {
   local checksums=()
   local out elapsed throughput checksum expected
 
+  local jvm=""
+  if [[ "$name" == *java* ]]; then
+    jvm="$(docker run --rm "$name" java -version 2>&1 | head -n1 || true)"
+  fi
+
   for ((i=0; i<runs; i++)); do
     echo "Running $name (run $((i+1))/$runs)..."
     out="$(docker run --rm "$name")"
@@ -37,6 +53,7 @@ run_one() {
     times+=("$elapsed")
     throughputs+=("$throughput")
     checksums+=("$checksum")
+    record_result "$name" "$jvm" elapsed_ms="$elapsed" ops_per_sec="$throughput"
   done
 
   local min mean t_mean
@@ -3,6 +3,17 @@ set -euo pipefail
 
 ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 
+# Every run is appended to ../output/results.jsonl; compare with ../results.py compare
+RESULTS_TAG="${RESULTS_TAG:-$(git -C "$ROOT_DIR" rev-parse --short HEAD 2>/dev/null || echo local)-$(date +%Y%m%dT%H%M%S)}"
+BENCH_PARAMS="width=4000 height=4000 max_iter=1000"
+
+record_result() {
+  local name="$1" jvm="$2"
+  shift 2
+  python3 "$ROOT_DIR/../results.py" record --bench "$(basename "$ROOT_DIR")" --impl "$name" \
+    --params "$BENCH_PARAMS" --tag "$RESULTS_TAG" --jvm "$jvm" "$@" || true
+}
+
 build() {
   local name="$1"
   local dockerfile="$2"
@@ -25,6 +36,11 @@ run_one() {
   # Ensure output directory exists
   mkdir -p "$ROOT_DIR/output"
 
+  local jvm=""
+  if [[ "$name" == *java* ]]; then
+    jvm="$(docker run --rm "$name" java -version 2>&1 | head -n1 || true)"
+  fi
+
   for ((i=0; i<runs; i++)); do
     echo "Running $name (run $((i+1))/$runs)..."
     docker rm -f "${name}-tmp" >/dev/null 2>&1 || true
@@ -33,6 +49,7 @@ run_one() {
     throughput="$(echo "$out" | awk -F'[= ]' '{for (i=1;i<=NF;i++) if ($i=="mpixels_per_sec") {print $(i+1); exit}}')"
     times+=("$elapsed")
     throughputs+=("$throughput")
+    record_result "$name" "$jvm" elapsed_ms="$elapsed" mpixels_per_sec="$throughput"
     
     # Extract the image from the last run to verify
     if [ $i -eq $((runs-1)) ]; then
@@ -3,6 +3,17 @@ set -euo pipefail
 
 ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 
+# Every run is appended to ../output/results.jsonl; compare with ../results.py compare
+RESULTS_TAG="${RESULTS_TAG:-$(git -C "$ROOT_DIR" rev-parse --short HEAD 2>/dev/null || echo local)-$(date +%Y%m%dT%H%M%S)}"
+BENCH_PARAMS="bodies=1500 steps=400"
+
+record_result() {
+  local name="$1" jvm="$2"
+  shift 2
+  python3 "$ROOT_DIR/../results.py" record --bench "$(basename "$ROOT_DIR")" --impl "$name" \
+    --params "$BENCH_PARAMS" --tag "$RESULTS_TAG" --jvm "$jvm" "$@" || true
+}
+
 build() {
   local name="$1"
   local dockerfile="$2"
@@ -23,12 +34,18 @@ run_one() {
   local times=()
   local checksums=()
   local out elapsed checksum
+  local jvm=""
+  if [[ "$name" == *java* ]]; then
+    jvm="$(docker run --rm "$name" java -version 2>&1 | head -n1 || true)"
+  fi
+
   for ((i=0; i<runs; i++)); do
     out="$(docker run --rm "$name")"
     elapsed="$(echo "$out" | awk -F'[= ]' '{for (i=1;i<=NF;i++) if ($i=="elapsed_ms") {print $(i+1); exit}}')"
     checksum="$(echo "$out" | awk -F'[= ]' '{for (i=1;i<=NF;i++) if ($i=="checksum") {print $(i+1); exit}}')"
     times+=("$elapsed")
     checksums+=("$checksum")
+    record_result "$name" "$jvm" elapsed_ms="$elapsed"
   done
 
   local sorted min median mean checksum_out
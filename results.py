@@ -0,0 +1,296 @@
+#!/usr/bin/env python3
+"""Persistent benchmark result history and regression gate.
+
+Every run recorded by a run_bench.sh is appended as one JSON line to
+output/results.jsonl, keyed by benchmark, implementation, workload params,
+JVM version and CPU. Runs from the same invocation share a tag
+(RESULTS_TAG, default <git rev>-<timestamp>).
+
+  results.py record --bench B --impl I --params P --tag T [--jvm V] metric=value ...
+  results.py tags
+  results.py compare [--baseline TAG] [--candidate TAG] [--threshold PCT] [--alpha A]
+
+compare runs a one-sided Mann-Whitney U test per (key, metric) between the
+baseline and candidate runs and exits 1 when any metric is worse by more than
+--threshold percent (median vs median) with p <= --alpha. Keys are resolved
+independently: without --candidate the candidate is the newest tag that
+recorded the key, and without --baseline the baseline is the tag before it.
+A bare compare therefore checks every benchmark, even when each suite ran
+under its own tag. The JVM version only takes part in matching with
+--same-jvm, so a JDK upgrade is compared against the previous JDK. Metrics
+ending in _ms are lower-is-better, everything else higher-is-better. With the
+default RUNS=3 the smallest attainable exact p-value is 0.05, so keep
+RUNS >= 3.
+"""
+import argparse
+import itertools
+import json
+import math
+import os
+import platform
+import subprocess
+import sys
+import time
+
+ROOT_DIR = os.path.dirname(os.path.abspath(__file__))
+RESULTS_FILE = os.path.join(ROOT_DIR, "output", "results.jsonl")
+
+
+def cpu_model():
+    try:
+        with open("/proc/cpuinfo") as f:
+            for line in f:
+                if line.startswith("model name") or line.startswith("Model"):
+                    return line.split(":", 1)[1].strip()
+    except OSError:
+        pass
+    try:
+        out = subprocess.run(["sysctl", "-n", "machdep.cpu.brand_string"], capture_output=True, text=True)
+        if out.returncode == 0 and out.stdout.strip():
+            return out.stdout.strip()
+    except OSError:
+        pass
+    return platform.machine()
+
+
+def load(path):
+    records = []
+    if not os.path.exists(path):
+        return records
+    with open(path) as f:
+        for line in f:
+            line = line.strip()
+            if line:
+                records.append(json.loads(line))
+    return records
+
+
+def key_of(r, same_jvm):
+    # JVM is left out of the match by default so a JDK upgrade is compared against the old JDK
+    return (r["bench"], r["impl"], r["params"], r["cpu"], r["jvm"] if same_jvm else "")
+
+
+def tags_in_order(records):
+    seen = []
+    for r in records:
+        if r["tag"] not in seen:
+            seen.append(r["tag"])
+    return seen
+
+
+def median(xs):
+    s = sorted(xs)
+    n = len(s)
+    return s[n // 2] if n % 2 else (s[n // 2 - 1] + s[n // 2]) / 2
+
+
+def mann_whitney_greater(a, b):
+    """One-sided p-value for H1: values in a tend to be greater than in b."""
+    n1, n2 = len(a), len(b)
+    pooled = sorted([(v, 0) for v in a] + [(v, 1) for v in b])
+    ranks = [0.0] * len(pooled)
+    ties = []
+    i = 0
+    while i < len(pooled):
+        j = i
+        while j + 1 < len(pooled) and pooled[j + 1][0] == pooled[i][0]:
+            j += 1
+        for k in range(i, j + 1):
+            ranks[k] = (i + j) / 2 + 1
+        ties.append(j - i + 1)
+        i = j + 1
+    r1 = sum(r for r, (_, g) in zip(ranks, pooled) if g == 0)
+    u = r1 - n1 * (n1 + 1) / 2
+
+    if all(t == 1 for t in ties) and n1 * n2 <= 400:
+        # Exact null distribution of U: counts[u] over all C(n1+n2, n1) rank splits
+        counts = {(0, 0): [1]}
+
+        def dist(m, n):
+            if (m, n) in counts:
+                return counts[(m, n)]
+            if m == 0 or n == 0:
+                counts[(m, n)] = [1]
+                return counts[(m, n)]
+            # The largest observation comes from group 1 (adds n to U) or group 2
+            with_a = [0] * n + dist(m - 1, n)
+            with_b = dist(m, n - 1)
+            size = max(len(with_a), len(with_b))
+            res = [(with_a[k] if k < len(with_a) else 0) + (with_b[k] if k < len(with_b) else 0) for k in range(size)]
+            counts[(m, n)] = res
+            return res
+
+        d = dist(n1, n2)
+        total = sum(d)
+        return sum(d[int(u):]) / total
+
+    if math.comb(n1 + n2, n1) <= 5000:
+        # Exact with ties: enumerate every way to assign the mid-ranks to group 1
+        splits = list(itertools.combinations(ranks, n1))
+        hits = sum(1 for split in splits if sum(split) >= r1 - 1e-9)
+        return hits / len(splits)
+
+    # Normal approximation with tie and continuity correction
+    n = n1 + n2
+    mu = n1 * n2 / 2
+    sigma2 = n1 * n2 / 12 * ((n + 1) - sum(t ** 3 - t for t in ties) / (n * (n - 1)))
+    if sigma2 <= 0:
+        return 1.0
+    z = (u - mu - 0.5) / math.sqrt(sigma2)
+    return 0.5 * math.erfc(z / math.sqrt(2))
+
+
+def cmd_record(args):
+    out_dir = os.path.dirname(args.file)
+    if out_dir:
+        os.makedirs(out_dir, exist_ok=True)
+    record = {
+        "tag": args.tag,
+        "time": time.strftime("%Y-%m-%dT%H:%M:%S"),
+        "bench": args.bench,
+        "impl": args.impl,
+        "params": args.params,
+        "jvm": args.jvm,
+        "cpu": args.cpu or cpu_model(),
+        "metrics": {},
+    }
+    # A run is stored whole or not at all: a partial record could still be paired in compare
+    for m in args.metrics:
+        name, _, value = m.partition("=")
+        try:
+            record["metrics"][name] = float(value)
+        except ValueError:
+            print(f"results.py: not recording {args.impl} run, unparseable metric '{m}'", file=sys.stderr)
+            return 0
+    with open(args.file, "a") as f:
+        f.write(json.dumps(record, sort_keys=True) + "\n")
+    return 0
+
+
+def cmd_tags(args):
+    records = load(args.file)
+    for tag in tags_in_order(records):
+        runs = [r for r in records if r["tag"] == tag]
+        benches = sorted({r["bench"] for r in runs})
+        print(f"{tag:<32} {len(runs):>5} runs  {', '.join(benches)}")
+    return 0
+
+
+def cmd_compare(args):
+    records = load(args.file)
+    tags = tags_in_order(records)
+    for label, tag in (("candidate", args.candidate), ("baseline", args.baseline)):
+        if tag is not None and tag not in tags:
+            print(f"results.py: no runs recorded for {label} tag '{tag}'", file=sys.stderr)
+            return 2
+
+    jvms = {}
+
+    def group(tag):
+        out = {}
+        for r in records:
+            if r["tag"] != tag:
+                continue
+            k = key_of(r, args.same_jvm)
+            jvms[(tag, k)] = r["jvm"]
+            for metric, value in r["metrics"].items():
+                out.setdefault(k + (metric,), []).append(value)
+        return out
+
+    # Every run_bench.sh invocation records under its own tag, so without --candidate each key's
+    # newest tag is the candidate, and without --baseline the latest earlier tag that has the key
+    grouped = {tag: group(tag) for tag in tags}
+    keys = sorted({k for g in grouped.values() for k in g})
+    pairs = []
+    unmatched = 0
+    for k in keys:
+        having = [tag for tag in tags if k in grouped[tag]]
+        if args.candidate is not None:
+            if args.candidate not in having:
+                continue
+            candidate = args.candidate
+        else:
+            candidate = having[-1]
+        if args.baseline is not None:
+            baseline = args.baseline if args.baseline in having and args.baseline != candidate else None
+        else:
+            earlier = having[:having.index(candidate)]
+            baseline = earlier[-1] if earlier else None
+        if baseline is None:
+            unmatched += 1
+            continue
+        pairs.append((k, baseline, candidate))
+    if not pairs:
+        print("results.py: no benchmark/params/jvm/cpu key has both baseline and candidate runs", file=sys.stderr)
+        return 2
+
+    print(f"threshold={args.threshold}% alpha={args.alpha}")
+    print(f"{'bench':<22} {'impl':<16} {'metric':<18} {'baseline':<28} {'candidate':<28} {'base_med':>12} {'cand_med':>12} {'delta%':>8} {'p':>7}  status")
+    regressions = 0
+    for k, baseline, candidate in pairs:
+        bench, impl, _, _, _, metric = k
+        b, c = grouped[baseline][k], grouped[candidate][k]
+        jvm_before, jvm_after = jvms[(baseline, k[:-1])], jvms[(candidate, k[:-1])]
+        b_med, c_med = median(b), median(c)
+        lower_is_better = metric.endswith("_ms")
+        if lower_is_better:
+            worse_pct = (c_med - b_med) / b_med * 100 if b_med else 0.0
+            p = mann_whitney_greater(c, b)
+        else:
+            worse_pct = (b_med - c_med) / b_med * 100 if b_med else 0.0
+            p = mann_whitney_greater(b, c)
+        delta = (c_med - b_med) / b_med * 100 if b_med else 0.0
+
+        if worse_pct > args.threshold and p <= args.alpha:
+            status = "REGRESSION"
+            regressions += 1
+        elif worse_pct > args.threshold:
+            status = "noisy"
+        else:
+            status = "ok"
+        print(f"{bench:<22} {impl:<16} {metric:<18} {baseline:<28} {candidate:<28} {b_med:>12.3f} {c_med:>12.3f} {delta:>+8.2f} {p:>7.3f}  {status}")
+        if jvm_before != jvm_after:
+            print(f"{'':<22} jvm: {jvm_before} -> {jvm_after}")
+
+    if unmatched:
+        print(f"({unmatched} metric(s) have no baseline runs and were not compared)")
+    if regressions:
+        print(f"FAILED: {regressions} regression(s) beyond {args.threshold}%")
+        return 1
+    print("PASSED")
+    return 0
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Benchmark result history and regression gate.")
+    parser.add_argument("--file", default=RESULTS_FILE, help="results store (default: output/results.jsonl)")
+    sub = parser.add_subparsers(dest="command", required=True)
+
+    p = sub.add_parser("record", help="append one run")
+    p.add_argument("--bench", required=True)
+    p.add_argument("--impl", required=True)
+    p.add_argument("--params", default="")
+    p.add_argument("--tag", required=True)
+    p.add_argument("--jvm", default="")
+    p.add_argument("--cpu", default=None)
+    p.add_argument("metrics", nargs="+", help="metric=value pairs")
+    p.set_defaults(func=cmd_record)
+
+    p = sub.add_parser("tags", help="list recorded tags")
+    p.set_defaults(func=cmd_tags)
+
+    p = sub.add_parser("compare", help="compare two tags and exit 1 on regression")
+    p.add_argument("--baseline", default=None, help="default: per key, the latest earlier tag that recorded it")
+    p.add_argument("--candidate", default=None, help="default: per key, the newest tag that recorded it")
+    p.add_argument("--threshold", type=float, default=float(os.environ.get("REGRESSION_THRESHOLD", "5")),
+                   help="percent slowdown tolerated (default 5, or $REGRESSION_THRESHOLD)")
+    p.add_argument("--alpha", type=float, default=0.05, help="significance level (default 0.05)")
+    p.add_argument("--same-jvm", action="store_true", help="only compare runs on the same JVM version")
+    p.set_defaults(func=cmd_compare)
+
+    args = parser.parse_args()
+    sys.exit(args.func(args))
+
+
+if __name__ == "__main__":
+    main()